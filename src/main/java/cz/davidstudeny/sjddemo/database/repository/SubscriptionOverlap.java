@@ -0,0 +1,12 @@
+package cz.davidstudeny.sjddemo.database.repository;
+
+import cz.davidstudeny.sjddemo.database.model.Subscription;
+
+/**
+ * A pair of subscriptions of the same quotation whose periods intersect.
+ *
+ * @param subscription            the checked subscription
+ * @param conflictingSubscription the stored or checked subscription it collides with
+ */
+public record SubscriptionOverlap(Subscription subscription, Subscription conflictingSubscription) {
+}
@@ -0,0 +1,60 @@
+package cz.davidstudeny.sjddemo.database.repository;
+
+import cz.davidstudeny.sjddemo.database.model.Quotation;
+import cz.davidstudeny.sjddemo.database.model.Subscription;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the subscriptions of a quotation from overlapping each other.
+ * <p>
+ * Every write of subscriptions goes through {@link #save} or {@link #saveAll}, which check the new periods in the
+ * write transaction while holding a write lock on the quotation rows involved. Concurrent writes to the same
+ * quotation are thereby serialized and the stored periods of a quotation stay disjoint, which {@link
+ * #existsOverlapping} relies on. The sample data of the migrations is disjoint as well.
+ *
+ * @param <T> the subscription type, declared like {@code CrudRepository} so that this fragment overrides its writes
+ */
+public interface SubscriptionOverlapRepository<T extends Subscription> {
+
+    /**
+     * Checks whether the quotation already has a subscription whose period intersects {@code [startDate, validUntil]}.
+     * Both bounds are inclusive. The subscription with {@code excludedId} is ignored so that an update does not collide
+     * with its own stored version; pass {@code null} when creating.
+     * <p>
+     * As the stored periods of a quotation are disjoint, only the predecessor, i.e. the subscription with the latest
+     * start not after {@code validUntil}, can intersect the period. It is a single probe of the
+     * {@code (quotation_id, start_date DESC)} index, independent of the number of subscriptions.
+     */
+    boolean existsOverlapping(Quotation quotation, LocalDate startDate, LocalDate validUntil, UUID excludedId);
+
+    /**
+     * Finds overlaps of a chunk of subscriptions, e.g. from a bulk import, both against the stored subscriptions and
+     * among the chunk itself.
+     * <p>
+     * The stored candidates are loaded with a single query bounded by the period the whole chunk spans, after which
+     * every quotation is checked with one sweep over its subscriptions ordered by start date. Each pair involving
+     * a subscription of the chunk is reported once. Subscriptions without a quotation or with an invalid period are
+     * skipped, as the validator rejects them.
+     * <p>
+     * Outside of {@link #saveAll} the result is only a snapshot, e.g. to preview an import.
+     */
+    List<SubscriptionOverlap> findOverlaps(List<? extends Subscription> subscriptions);
+
+    /**
+     * Saves the subscription unless it overlaps another subscription of its quotation.
+     *
+     * @throws org.springframework.data.rest.core.RepositoryConstraintViolationException if the period overlaps
+     */
+    <S extends T> S save(S subscription);
+
+    /**
+     * Saves the subscriptions unless any of them overlaps a stored subscription or another one of the chunk,
+     * in which case none is saved.
+     *
+     * @throws org.springframework.data.rest.core.RepositoryConstraintViolationException if a period overlaps
+     */
+    <S extends T> Iterable<S> saveAll(Iterable<S> subscriptions);
+}
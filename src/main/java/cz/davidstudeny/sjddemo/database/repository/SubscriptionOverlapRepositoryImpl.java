@@ -0,0 +1,253 @@
+package cz.davidstudeny.sjddemo.database.repository;
+
+import cz.davidstudeny.sjddemo.database.model.Quotation;
+import cz.davidstudeny.sjddemo.database.model.Subscription;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.rest.core.RepositoryConstraintViolationException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BeanPropertyBindingResult;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+public class SubscriptionOverlapRepositoryImpl implements SubscriptionOverlapRepository<Subscription> {
+
+    private final EntityManager entityManager;
+
+    public SubscriptionOverlapRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public boolean existsOverlapping(Quotation quotation, LocalDate startDate, LocalDate validUntil, UUID excludedId) {
+        var jpql = """
+                SELECT s.validUntil FROM Subscription s
+                WHERE s.quotation = :quotation
+                  AND s.startDate <= :validUntil
+                """;
+        if (excludedId != null) {
+            jpql += " AND s.id <> :excludedId";
+        }
+        // Ordering by the fixed quotation as well lets H2 recognize the order of the index and stop at its first
+        // entry; ordered by the start date alone it sorts all subscriptions of the quotation.
+        var query = entityManager.createQuery(jpql + " ORDER BY s.quotation.id, s.startDate DESC", LocalDate.class)
+                .setParameter("quotation", quotation)
+                .setParameter("validUntil", validUntil)
+                .setMaxResults(1);
+        if (excludedId != null) {
+            query.setParameter("excludedId", excludedId);
+        }
+
+        var predecessor = query.getResultList();
+        return !predecessor.isEmpty() && !predecessor.get(0).isBefore(startDate);
+    }
+
+    @Override
+    public List<SubscriptionOverlap> findOverlaps(List<? extends Subscription> subscriptions) {
+        var byQuotation = new LinkedHashMap<UUID, List<Subscription>>();
+        var quotations = new LinkedHashMap<UUID, Quotation>();
+        var chunkIds = new HashSet<UUID>();
+        LocalDate windowStart = null;
+        LocalDate windowEnd = null;
+
+        for (var subscription : subscriptions) {
+            if (!isCheckable(subscription)) {
+                continue;
+            }
+            var quotation = subscription.getQuotation();
+            quotations.putIfAbsent(quotation.getId(), quotation);
+            byQuotation.computeIfAbsent(quotation.getId(), id -> new ArrayList<>()).add(subscription);
+            if (subscription.getId() != null) {
+                chunkIds.add(subscription.getId());
+            }
+            if (windowStart == null || subscription.getStartDate().isBefore(windowStart)) {
+                windowStart = subscription.getStartDate();
+            }
+            if (windowEnd == null || subscription.getValidUntil().isAfter(windowEnd)) {
+                windowEnd = subscription.getValidUntil();
+            }
+        }
+
+        if (byQuotation.isEmpty()) {
+            return List.of();
+        }
+
+        var storedByQuotation = new LinkedHashMap<UUID, List<Subscription>>();
+        for (var stored : findIntersecting(quotations.values(), windowStart, windowEnd)) {
+            // The chunk holds the new version of a stored subscription that is being updated.
+            if (chunkIds.contains(stored.getId())) {
+                continue;
+            }
+            storedByQuotation.computeIfAbsent(stored.getQuotation().getId(), id -> new ArrayList<>()).add(stored);
+        }
+
+        var overlaps = new ArrayList<SubscriptionOverlap>();
+        for (Map.Entry<UUID, List<Subscription>> entry : byQuotation.entrySet()) {
+            var stored = storedByQuotation.getOrDefault(entry.getKey(), List.of());
+            sweep(entry.getValue(), stored, overlaps);
+        }
+        return overlaps;
+    }
+
+    @Override
+    @Transactional
+    public <S extends Subscription> S save(S subscription) {
+        if (isCheckable(subscription)) {
+            lockQuotations(List.of(subscription.getQuotation().getId()));
+
+            var overlapping = existsOverlapping(
+                    subscription.getQuotation(),
+                    subscription.getStartDate(),
+                    subscription.getValidUntil(),
+                    subscription.getId()
+            );
+            if (overlapping) {
+                throw overlapViolation(subscription);
+            }
+        }
+        return persist(subscription);
+    }
+
+    @Override
+    @Transactional
+    public <S extends Subscription> Iterable<S> saveAll(Iterable<S> subscriptions) {
+        var chunk = new ArrayList<S>();
+        subscriptions.forEach(chunk::add);
+
+        lockQuotations(chunk.stream()
+                .filter(SubscriptionOverlapRepositoryImpl::isCheckable)
+                .map(subscription -> subscription.getQuotation().getId())
+                .distinct()
+                .toList());
+
+        var overlaps = findOverlaps(chunk);
+        if (!overlaps.isEmpty()) {
+            throw overlapViolation(overlaps.get(0).subscription());
+        }
+
+        var saved = new ArrayList<S>(chunk.size());
+        for (var subscription : chunk) {
+            saved.add(persist(subscription));
+        }
+        return saved;
+    }
+
+    /**
+     * Loads the subscriptions of the given quotations that intersect {@code [startDate, validUntil]}.
+     */
+    private List<Subscription> findIntersecting(Collection<Quotation> quotations, LocalDate startDate, LocalDate validUntil) {
+        return entityManager.createQuery("""
+                        SELECT s FROM Subscription s
+                        WHERE s.quotation IN :quotations
+                          AND s.startDate <= :validUntil
+                          AND s.validUntil >= :startDate
+                        """, Subscription.class)
+                .setParameter("quotations", quotations)
+                .setParameter("startDate", startDate)
+                .setParameter("validUntil", validUntil)
+                .getResultList();
+    }
+
+    /**
+     * Takes the write locks of the quotations in the order of their ids, so concurrent writers cannot deadlock.
+     */
+    private void lockQuotations(List<UUID> quotationIds) {
+        if (quotationIds.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("SELECT q FROM Quotation q WHERE q.id IN :ids ORDER BY q.id", Quotation.class)
+                .setParameter("ids", quotationIds)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    private <S extends Subscription> S persist(S subscription) {
+        if (subscription.getId() == null) {
+            entityManager.persist(subscription);
+            return subscription;
+        }
+        return entityManager.merge(subscription);
+    }
+
+    private static RepositoryConstraintViolationException overlapViolation(Subscription subscription) {
+        var dateFormatter = DateTimeFormatter.ISO_DATE;
+        var errorMessage = String.format(
+                "The period <%s> - <%s> overlaps another subscription of quotation <%s>",
+                dateFormatter.format(subscription.getStartDate()),
+                dateFormatter.format(subscription.getValidUntil()),
+                subscription.getQuotation().getId()
+        );
+
+        var errors = new BeanPropertyBindingResult(subscription, "subscription");
+        errors.rejectValue(
+                "startDate",
+                "startDate.overlapping",
+                errorMessage
+        );
+        return new RepositoryConstraintViolationException(errors);
+    }
+
+    private static boolean isCheckable(Subscription subscription) {
+        return subscription.getQuotation() != null
+                && subscription.getQuotation().getId() != null
+                && subscription.getStartDate() != null
+                && subscription.getValidUntil() != null
+                && !subscription.getStartDate().isAfter(subscription.getValidUntil());
+    }
+
+    /**
+     * Walks the subscriptions of one quotation by start date, keeping the still active chunk and stored
+     * subscriptions ordered by their end so the ones that ended before the current start are evicted cheaply.
+     */
+    private static void sweep(List<Subscription> chunk, List<Subscription> stored, List<SubscriptionOverlap> overlaps) {
+        var events = new ArrayList<Subscription>(chunk.size() + stored.size());
+        events.addAll(chunk);
+        events.addAll(stored);
+        events.sort(Comparator.comparing(Subscription::getStartDate));
+
+        var storedSet = Collections.newSetFromMap(new IdentityHashMap<Subscription, Boolean>());
+        storedSet.addAll(stored);
+
+        Comparator<Subscription> byEnd = Comparator.comparing(Subscription::getValidUntil);
+        var activeChunk = new PriorityQueue<>(byEnd);
+        var activeStored = new PriorityQueue<>(byEnd);
+
+        for (var current : events) {
+            evictEnded(activeChunk, current.getStartDate());
+            evictEnded(activeStored, current.getStartDate());
+
+            if (storedSet.contains(current)) {
+                for (var active : activeChunk) {
+                    overlaps.add(new SubscriptionOverlap(active, current));
+                }
+                activeStored.add(current);
+            } else {
+                for (var active : activeChunk) {
+                    overlaps.add(new SubscriptionOverlap(current, active));
+                }
+                for (var active : activeStored) {
+                    overlaps.add(new SubscriptionOverlap(current, active));
+                }
+                activeChunk.add(current);
+            }
+        }
+    }
+
+    private static void evictEnded(PriorityQueue<Subscription> active, LocalDate startDate) {
+        while (!active.isEmpty() && active.peek().getValidUntil().isBefore(startDate)) {
+            active.poll();
+        }
+    }
+}
@@ -5,5 +5,12 @@ import org.springframework.data.repository.CrudRepository;
 
 import java.util.UUID;
 
-public interface SubscriptionRepository extends CrudRepository<Subscription, UUID> {
+public interface SubscriptionRepository
+        extends CrudRepository<Subscription, UUID>, SubscriptionOverlapRepository<Subscription> {
+
+    /**
+     * Redeclared to resolve the inherited declarations; implemented by {@link SubscriptionOverlapRepositoryImpl}.
+     */
+    @Override
+    <S extends Subscription> S save(S subscription);
 }
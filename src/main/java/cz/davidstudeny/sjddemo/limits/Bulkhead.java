@@ -0,0 +1,71 @@
+package cz.davidstudeny.sjddemo.limits;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of concurrent requests of one endpoint class. Requests over the {@link Limit} are not queued,
+ * the caller is expected to reject them right away.
+ */
+public class Bulkhead {
+
+    private final Limit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    public Bulkhead(Limit limit, MeterRegistry meterRegistry, String resource, String method) {
+        this.limit = limit;
+
+        var tags = Tags.of("resource", resource, "method", method);
+        Gauge.builder("concurrency.limit", limit, Limit::getLimit)
+                .description("The number of requests allowed to run concurrently")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("The number of requests currently running")
+                .tags(tags)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("concurrency.rejected")
+                .description("The number of requests rejected over the limit")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request if there is room for it.
+     *
+     * @return the number of requests in flight including the admitted one, or {@code -1} when rejected
+     */
+    public int tryAcquire() {
+        while (true) {
+            var current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                rejected.increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Releases a request admitted by {@link #tryAcquire()}.
+     */
+    public void release(long rttNanos, int inFlightOnAcquire) {
+        inFlight.decrementAndGet();
+        limit.onSample(rttNanos, inFlightOnAcquire);
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
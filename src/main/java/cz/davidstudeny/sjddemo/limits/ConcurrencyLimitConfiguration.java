@@ -0,0 +1,38 @@
+package cz.davidstudeny.sjddemo.limits;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "sjd.concurrency-limit", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ConcurrencyLimitProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        var bulkheads = new LinkedHashMap<String, Bulkhead>();
+        properties.getResources().forEach((resource, methods) -> methods.forEach((method, endpoint) -> {
+            var bulkhead = new Bulkhead(endpoint.createLimit(), meterRegistry, resource, method.toUpperCase(Locale.ROOT));
+            bulkheads.put(ConcurrencyLimitFilter.key(resource, method), bulkhead);
+        }));
+
+        var registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(bulkheads, properties.getRetryAfter())
+        );
+        // Right after the observation filter (HIGHEST_PRECEDENCE + 1) so rejections still show up in
+        // http.server.requests, but before any other filter spends work on a request that will not run.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
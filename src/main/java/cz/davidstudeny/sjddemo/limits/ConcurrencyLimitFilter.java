@@ -0,0 +1,75 @@
+package cz.davidstudeny.sjddemo.limits;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs every request of a limited endpoint class inside its {@link Bulkhead}, so a flood on one endpoint, e.g.
+ * reporting reads, cannot take all the connections from another. Requests over the limit are answered with
+ * {@code 429 Too Many Requests} instead of waiting.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Map<String, Bulkhead> bulkheads;
+    private final String retryAfterSeconds;
+
+    /**
+     * @param bulkheads  the bulkheads keyed by {@link #key(String, String)}
+     * @param retryAfter the delay suggested to rejected clients
+     */
+    public ConcurrencyLimitFilter(Map<String, Bulkhead> bulkheads, Duration retryAfter) {
+        this.bulkheads = Map.copyOf(bulkheads);
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    static String key(String resource, String method) {
+        return resource.toLowerCase(Locale.ROOT) + " " + method.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * The first path segment after the context path, e.g. {@code subscriptions} for {@code /subscriptions/{id}}.
+     * The path is decoded, cleared of {@code ;} parameters and duplicate slashes the way MVC resolves it, so
+     * variants like {@code /subscriptions;x} or {@code /%73ubscriptions} cannot bypass the bulkhead.
+     */
+    private static String resourceOf(HttpServletRequest request) {
+        var path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        var start = path.startsWith("/") ? 1 : 0;
+        var end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var bulkhead = bulkheads.get(key(resourceOf(request), request.getMethod()));
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var inFlight = bulkhead.tryAcquire();
+        if (inFlight < 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        var start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.release(System.nanoTime() - start, inFlight);
+        }
+    }
+}
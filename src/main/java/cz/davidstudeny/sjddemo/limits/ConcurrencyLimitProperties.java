@@ -0,0 +1,62 @@
+package cz.davidstudeny.sjddemo.limits;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Concurrency limits per resource and HTTP method, e.g.
+ * {@code sjd.concurrency-limit.resources.subscriptions.get.type=gradient}.
+ * Requests of resources or methods without an entry are not limited.
+ */
+@Data
+@ConfigurationProperties(prefix = "sjd.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * The delay suggested to rejected clients in the {@code Retry-After} header.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * The limits keyed by the resource path segment and then by the HTTP method.
+     */
+    private Map<String, Map<String, Endpoint>> resources = new LinkedHashMap<>();
+
+    public enum Type {
+        FIXED,
+        GRADIENT
+    }
+
+    @Data
+    public static class Endpoint {
+
+        private Type type = Type.FIXED;
+
+        /**
+         * The limit of a fixed endpoint, or the initial limit of a gradient one.
+         */
+        private int limit = 10;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 100;
+
+        /**
+         * How fast a gradient limit follows the computed value, from {@code 0} (never) to {@code 1} (immediately).
+         */
+        private double smoothing = 0.2;
+
+        public Limit createLimit() {
+            return switch (type) {
+                case FIXED -> new FixedLimit(limit);
+                case GRADIENT -> new GradientLimit(limit, minLimit, maxLimit, smoothing);
+            };
+        }
+    }
+}
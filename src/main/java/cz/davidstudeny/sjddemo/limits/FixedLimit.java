@@ -0,0 +1,22 @@
+package cz.davidstudeny.sjddemo.limits;
+
+public class FixedLimit implements Limit {
+
+    private final int limit;
+
+    public FixedLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException(String.format("The limit must be positive but is <%d>", limit));
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight) {
+    }
+}
@@ -0,0 +1,99 @@
+package cz.davidstudeny.sjddemo.limits;
+
+/**
+ * A limit adapting to the measured latency in the manner of TCP Vegas.
+ * <p>
+ * A slowly moving average of the latency serves as the no-load baseline. While the latest sample stays within
+ * {@link #RTT_TOLERANCE} of it, the limit grows by a queue allowance of {@code sqrt(limit)}; once requests start to
+ * queue up downstream and the latency rises beyond that, the ratio of the baseline to the sample (the gradient)
+ * shrinks the limit proportionally, down to the minimum.
+ * <p>
+ * The limit only grows while the bulkhead is actually saturated, so an idle endpoint does not inflate it. Conversely,
+ * the baseline only follows rising latency while the bulkhead is not saturated: a saturated endpoint cannot tell its
+ * own queueing from a slower backend, so a lasting latency rise under load holds the limit down until the latency
+ * falls back.
+ */
+public class GradientLimit implements Limit {
+
+    /**
+     * The weight of a single sample in the baseline latency.
+     */
+    private static final double BASELINE_WEIGHT = 0.01;
+
+    /**
+     * How far a sample may exceed the baseline and still count as unqueued. Under load the baseline settles near the
+     * fastest samples, so this has to absorb the whole usual spread of the latency, not just its deviation from the mean.
+     */
+    private static final double RTT_TOLERANCE = 2.0;
+
+    /**
+     * The largest proportional decrease per sample, so a single slow request cannot collapse the limit.
+     */
+    private static final double MIN_GRADIENT = 0.5;
+
+    /**
+     * How far the sample may fall below the baseline before the baseline is reset to it, e.g. after a slow period.
+     */
+    private static final double BASELINE_DRIFT = 2.0;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+
+    private double limit;
+    private double baselineRtt;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double smoothing) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format(
+                    "The limit bounds must satisfy 1 <= minLimit <= maxLimit but are <%d> and <%d>",
+                    minLimit,
+                    maxLimit
+            ));
+        }
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The smoothing must be within (0, 1] but is <%s>",
+                    smoothing
+            ));
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.limit = clamp(initialLimit);
+    }
+
+    @Override
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        var saturated = inFlight >= limit / 2;
+
+        if (baselineRtt == 0 || baselineRtt / rttNanos > BASELINE_DRIFT) {
+            baselineRtt = rttNanos;
+        } else if (rttNanos < baselineRtt || !saturated) {
+            baselineRtt += (rttNanos - baselineRtt) * BASELINE_WEIGHT;
+        }
+
+        var gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * baselineRtt / rttNanos));
+        // Queueing shows, so there is no room to probe for; growing here would keep the limit off its minimum.
+        var queueAllowance = gradient < 1.0 ? 0.0 : Math.sqrt(limit);
+        var newLimit = limit * gradient + queueAllowance;
+
+        // Not saturated, the latency says nothing about whether more requests would still fit.
+        if (newLimit > limit && !saturated) {
+            return;
+        }
+        limit = clamp(limit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
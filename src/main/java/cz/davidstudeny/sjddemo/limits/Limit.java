@@ -0,0 +1,17 @@
+package cz.davidstudeny.sjddemo.limits;
+
+/**
+ * The number of requests a {@link Bulkhead} lets in at the same time.
+ */
+public interface Limit {
+
+    int getLimit();
+
+    /**
+     * Records a completed request.
+     *
+     * @param rttNanos the time the request spent inside the bulkhead
+     * @param inFlight the number of requests in flight when it was admitted, itself included
+     */
+    void onSample(long rttNanos, int inFlight);
+}
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS subscription_quotation_period_idx
+    ON subscription (quotation_id, start_date DESC, valid_until);
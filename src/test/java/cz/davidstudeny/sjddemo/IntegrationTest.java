@@ -0,0 +1,30 @@
+package cz.davidstudeny.sjddemo;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a test against the application on the in-memory {@code test} profile database.
+ * <p>
+ * Every test class uses the same configuration, including the shared {@link TestFixtures}, so they all share one
+ * cached application context, and every test method runs in a transaction rolled back at its end so no test sees
+ * the data of another. Tests that need their writes to reach the database, e.g. to observe a constraint violation on
+ * flush, opt out with {@code @Transactional(propagation = Propagation.NOT_SUPPORTED)}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+@Transactional
+public @interface IntegrationTest {
+}
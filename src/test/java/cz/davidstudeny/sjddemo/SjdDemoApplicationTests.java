@@ -1,9 +1,8 @@
 package cz.davidstudeny.sjddemo;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@IntegrationTest
 class SjdDemoApplicationTests {
 
     @Test
@@ -0,0 +1,98 @@
+package cz.davidstudeny.sjddemo;
+
+import cz.davidstudeny.sjddemo.database.model.Customer;
+import cz.davidstudeny.sjddemo.database.model.Quotation;
+import cz.davidstudeny.sjddemo.database.model.Subscription;
+import cz.davidstudeny.sjddemo.database.repository.CustomerRepository;
+import cz.davidstudeny.sjddemo.database.repository.QuotationRepository;
+import cz.davidstudeny.sjddemo.database.repository.SubscriptionRepository;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+
+/**
+ * Stores the entities the tests work with. Available in every {@link IntegrationTest}.
+ */
+@TestComponent
+public class TestFixtures {
+
+    private final CustomerRepository customerRepository;
+    private final QuotationRepository quotationRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public TestFixtures(
+            CustomerRepository customerRepository,
+            QuotationRepository quotationRepository,
+            SubscriptionRepository subscriptionRepository,
+            JdbcTemplate jdbcTemplate
+    ) {
+        this.customerRepository = customerRepository;
+        this.quotationRepository = quotationRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static Subscription subscription(Quotation quotation, LocalDate startDate, LocalDate validUntil) {
+        var subscription = new Subscription();
+        subscription.setQuotation(quotation);
+        subscription.setStartDate(startDate);
+        subscription.setValidUntil(validUntil);
+        return subscription;
+    }
+
+    public Customer createCustomer() {
+        var customer = new Customer();
+        customer.setBirthDate(LocalDate.now().minus(1, ChronoUnit.YEARS));
+        customer.setFirstName("Test");
+        customer.setLastName("Tester");
+        customer.setPhoneNumber("123456789");
+        customer.setEmail("test.tester@example.com");
+        return customerRepository.save(customer);
+    }
+
+    public Quotation createQuotation(Customer customer) {
+        var quotation = new Quotation();
+        quotation.setCustomer(customer);
+        quotation.setInsuredAmount(1L);
+        quotation.setBeginningOfInsurance(LocalDate.now().minus(1, ChronoUnit.YEARS));
+        quotation.setDateOfSigningMortgage(LocalDate.now().minus(1, ChronoUnit.YEARS));
+        return quotationRepository.save(quotation);
+    }
+
+    public Quotation createQuotation() {
+        return createQuotation(createCustomer());
+    }
+
+    public Subscription createSubscription(Quotation quotation) {
+        return subscriptionRepository.save(subscription(
+                quotation,
+                LocalDate.now().minus(1, ChronoUnit.YEARS),
+                LocalDate.now().plus(1, ChronoUnit.YEARS)
+        ));
+    }
+
+    /**
+     * Stores back-to-back one-day subscriptions starting at {@code origin}.
+     */
+    public void storeDailySubscriptions(Quotation quotation, LocalDate origin, int count) {
+        var subscriptions = new ArrayList<Subscription>(count);
+        for (int i = 0; i < count; i++) {
+            var day = origin.plusDays(i);
+            subscriptions.add(subscription(quotation, day, day));
+        }
+        subscriptionRepository.saveAll(subscriptions);
+    }
+
+    /**
+     * Removes a quotation together with its customer and subscriptions, for tests that commit their data.
+     */
+    public void deleteQuotation(Quotation quotation) {
+        jdbcTemplate.update("DELETE FROM subscription WHERE quotation_id = ?", quotation.getId());
+        jdbcTemplate.update("DELETE FROM quotation WHERE id = ?", quotation.getId());
+        jdbcTemplate.update("DELETE FROM customer WHERE id = ?", quotation.getCustomer().getId());
+    }
+}
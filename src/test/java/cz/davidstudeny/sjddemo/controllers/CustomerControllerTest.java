@@ -1,16 +1,17 @@
 package cz.davidstudeny.sjddemo.controllers;
 
+import cz.davidstudeny.sjddemo.IntegrationTest;
 import cz.davidstudeny.sjddemo.database.model.Customer;
 import cz.davidstudeny.sjddemo.database.repository.CustomerRepository;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
@@ -18,8 +19,7 @@ import java.util.UUID;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
-@AutoConfigureMockMvc
+@IntegrationTest
 public class CustomerControllerTest {
 
     @Autowired
@@ -70,6 +70,7 @@ public class CustomerControllerTest {
     }
 
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void shouldFailToCreateCustomerWithBirthDateInTheFuture() {
 
         var birthDate = LocalDate.now().plus(1, ChronoUnit.YEARS);
@@ -82,6 +83,7 @@ public class CustomerControllerTest {
     }
 
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void shouldFailToCreateCustomerWithMissingFields() throws Exception {
         var invalidJsonInput = """
                 {
@@ -1,5 +1,6 @@
 package cz.davidstudeny.sjddemo.controllers;
 
+import cz.davidstudeny.sjddemo.IntegrationTest;
 import cz.davidstudeny.sjddemo.database.model.Customer;
 import cz.davidstudeny.sjddemo.database.model.Quotation;
 import cz.davidstudeny.sjddemo.database.repository.CustomerRepository;
@@ -7,8 +8,6 @@ import cz.davidstudeny.sjddemo.database.repository.QuotationRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -17,8 +16,7 @@ import java.time.temporal.ChronoUnit;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
-@AutoConfigureMockMvc
+@IntegrationTest
 public class QuotationControllerTest {
 
 
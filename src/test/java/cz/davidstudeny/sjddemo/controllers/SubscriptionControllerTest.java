@@ -1,5 +1,6 @@
 package cz.davidstudeny.sjddemo.controllers;
 
+import cz.davidstudeny.sjddemo.IntegrationTest;
 import cz.davidstudeny.sjddemo.database.model.Customer;
 import cz.davidstudeny.sjddemo.database.model.Quotation;
 import cz.davidstudeny.sjddemo.database.model.Subscription;
@@ -9,8 +10,6 @@ import cz.davidstudeny.sjddemo.database.repository.SubscriptionRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -19,8 +18,7 @@ import java.time.temporal.ChronoUnit;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
-@AutoConfigureMockMvc
+@IntegrationTest
 public class SubscriptionControllerTest {
 
     @Autowired
@@ -116,6 +114,40 @@ public class SubscriptionControllerTest {
                 .andExpect(status().is4xxClientError());
     }
 
+    @Test
+    public void shouldFailToCreateSubscriptionOverlappingExistingOne() throws Exception {
+
+        var customer = createCustomer();
+        var quotation = createQuotation(customer);
+        var subscription = createSubscription(quotation);
+
+        var startDate = subscription.getValidUntil();
+        var validUntil = subscription.getValidUntil().plus(1, ChronoUnit.YEARS);
+
+        var overlappingJsonInput = createJsonInput(quotation, startDate, validUntil);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/subscriptions")
+                        .content(overlappingJsonInput))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    public void shouldCreateSubscriptionFollowingExistingOne() throws Exception {
+
+        var customer = createCustomer();
+        var quotation = createQuotation(customer);
+        var subscription = createSubscription(quotation);
+
+        var startDate = subscription.getValidUntil().plus(1, ChronoUnit.DAYS);
+        var validUntil = subscription.getValidUntil().plus(1, ChronoUnit.YEARS);
+
+        var validJsonInput = createJsonInput(quotation, startDate, validUntil);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/subscriptions")
+                        .content(validJsonInput))
+                .andExpect(status().isCreated());
+    }
+
     @Test
     public void shouldUpdateSubscriptionWithPut() throws Exception {
         var customer = createCustomer();
@@ -0,0 +1,118 @@
+package cz.davidstudeny.sjddemo.database.repository;
+
+import cz.davidstudeny.sjddemo.IntegrationTest;
+import cz.davidstudeny.sjddemo.TestFixtures;
+import cz.davidstudeny.sjddemo.database.model.Quotation;
+import cz.davidstudeny.sjddemo.database.model.Subscription;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Measures the overlap checks on quotations with thousands of subscriptions. Excluded from the default build,
+ * run with {@code mvn test -Pbenchmark}. Isolated so that no concurrently running test skews the timings.
+ */
+@IntegrationTest
+@Isolated
+@Tag("benchmark")
+public class SubscriptionOverlapBenchmarkTest {
+
+    private static final int SMALL_QUOTATION_SIZE = 100;
+    private static final int LARGE_QUOTATION_SIZE = 10_000;
+    private static final int CHUNK_SIZE = 1_000;
+    private static final int WARM_UP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 2_000;
+
+    /**
+     * How much slower a probe of the large quotation may be than one of the small quotation. A scan of the
+     * earlier subscriptions would be about {@code LARGE_QUOTATION_SIZE / SMALL_QUOTATION_SIZE} times slower.
+     */
+    private static final double SCALING_TOLERANCE = 3.0;
+
+    private static final LocalDate ORIGIN = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    /**
+     * Writes the stored subscriptions and detaches them. Left managed, every probe would flush the persistence context
+     * first and the timings would measure its dirty checking of thousands of entities instead of the query.
+     */
+    private void detachStored() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * The mean time of checking a new period appended after the last subscription, the common case of a renewal.
+     */
+    private long measureAppendProbeNanos(Quotation quotation, int size) {
+        var end = ORIGIN.plusDays(size);
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            subscriptionRepository.existsOverlapping(quotation, end, end.plusDays(i), null);
+        }
+
+        var started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            Assertions.assertFalse(subscriptionRepository.existsOverlapping(quotation, end, end.plusDays(i), null));
+        }
+        return (System.nanoTime() - started) / MEASURED_ITERATIONS;
+    }
+
+    @Test
+    public void benchmarkSingleProbe(TestReporter reporter) {
+        var small = fixtures.createQuotation();
+        fixtures.storeDailySubscriptions(small, ORIGIN, SMALL_QUOTATION_SIZE);
+        var large = fixtures.createQuotation();
+        fixtures.storeDailySubscriptions(large, ORIGIN, LARGE_QUOTATION_SIZE);
+        detachStored();
+
+        var smallNanos = measureAppendProbeNanos(small, SMALL_QUOTATION_SIZE);
+        var largeNanos = measureAppendProbeNanos(large, LARGE_QUOTATION_SIZE);
+
+        reporter.publishEntry("probe.small.micros", Long.toString(smallNanos / 1_000));
+        reporter.publishEntry("probe.large.micros", Long.toString(largeNanos / 1_000));
+        Assertions.assertTrue(
+                largeNanos <= smallNanos * SCALING_TOLERANCE,
+                String.format("The probe took %d ns on %d subscriptions but %d ns on %d",
+                        largeNanos, LARGE_QUOTATION_SIZE, smallNanos, SMALL_QUOTATION_SIZE)
+        );
+    }
+
+    @Test
+    public void benchmarkChunk(TestReporter reporter) {
+        var quotation = fixtures.createQuotation();
+        fixtures.storeDailySubscriptions(quotation, ORIGIN, LARGE_QUOTATION_SIZE);
+        detachStored();
+        var end = ORIGIN.plusDays(LARGE_QUOTATION_SIZE);
+
+        var chunk = new ArrayList<Subscription>(CHUNK_SIZE);
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            var day = end.plusDays(i);
+            chunk.add(TestFixtures.subscription(quotation, day, day));
+        }
+
+        for (int i = 0; i < WARM_UP_ITERATIONS / 100; i++) {
+            subscriptionRepository.findOverlaps(chunk);
+        }
+        var started = System.nanoTime();
+        var overlaps = subscriptionRepository.findOverlaps(chunk);
+        var chunkMillis = (System.nanoTime() - started) / 1_000_000;
+
+        Assertions.assertTrue(overlaps.isEmpty());
+        reporter.publishEntry("chunk.millis", Long.toString(chunkMillis));
+    }
+}
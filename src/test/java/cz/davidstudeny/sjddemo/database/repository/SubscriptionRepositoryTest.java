@@ -0,0 +1,205 @@
+package cz.davidstudeny.sjddemo.database.repository;
+
+import cz.davidstudeny.sjddemo.IntegrationTest;
+import cz.davidstudeny.sjddemo.TestFixtures;
+import cz.davidstudeny.sjddemo.database.model.Subscription;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.RepositoryConstraintViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@IntegrationTest
+public class SubscriptionRepositoryTest {
+
+    private static final int LARGE_QUOTATION_SIZE = 2_000;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    public void shouldDetectOverlapWithStoredSubscription() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+        subscriptionRepository.save(TestFixtures.subscription(quotation, origin, origin.plusMonths(1)));
+
+        Assertions.assertTrue(subscriptionRepository.existsOverlapping(
+                quotation, origin.plusMonths(1), origin.plusMonths(2), null));
+        Assertions.assertFalse(subscriptionRepository.existsOverlapping(
+                quotation, origin.plusMonths(1).plusDays(1), origin.plusMonths(2), null));
+    }
+
+    @Test
+    public void shouldCheckOnlyThePredecessor() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+        subscriptionRepository.save(TestFixtures.subscription(quotation, origin, origin.plusDays(9)));
+        subscriptionRepository.save(TestFixtures.subscription(quotation, origin.plusDays(20), origin.plusDays(29)));
+
+        // Fits the gap between the two stored periods.
+        Assertions.assertFalse(subscriptionRepository.existsOverlapping(
+                quotation, origin.plusDays(10), origin.plusDays(19), null));
+        // Reaches into the later period only.
+        Assertions.assertTrue(subscriptionRepository.existsOverlapping(
+                quotation, origin.plusDays(10), origin.plusDays(20), null));
+        // Starts inside the earlier period.
+        Assertions.assertTrue(subscriptionRepository.existsOverlapping(
+                quotation, origin.plusDays(9), origin.plusDays(15), null));
+    }
+
+    @Test
+    public void shouldIgnoreOwnStoredVersion() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+        var stored = subscriptionRepository.save(TestFixtures.subscription(quotation, origin, origin.plusMonths(1)));
+
+        Assertions.assertFalse(subscriptionRepository.existsOverlapping(
+                quotation, origin, origin.plusMonths(2), stored.getId()));
+    }
+
+    @Test
+    public void shouldRejectSavingOverlappingSubscription() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+        subscriptionRepository.save(TestFixtures.subscription(quotation, origin, origin.plusMonths(1)));
+
+        var overlapping = TestFixtures.subscription(quotation, origin.plusDays(10), origin.plusMonths(2));
+
+        Assertions.assertThrows(RepositoryConstraintViolationException.class, () ->
+                subscriptionRepository.save(overlapping));
+    }
+
+    @Test
+    public void shouldRejectSavingChunkOverlappingStoredSubscription() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+        subscriptionRepository.save(TestFixtures.subscription(quotation, origin, origin.plusDays(99)));
+
+        var free = TestFixtures.subscription(quotation, origin.plusDays(100), origin.plusDays(109));
+        var nested = TestFixtures.subscription(quotation, origin.plusDays(4), origin.plusDays(5));
+
+        Assertions.assertThrows(RepositoryConstraintViolationException.class, () ->
+                subscriptionRepository.saveAll(List.of(free, nested)));
+        // The probe of a period after the rejected one would only see the stored predecessor.
+        Assertions.assertTrue(subscriptionRepository.existsOverlapping(
+                quotation, origin.plusDays(49), origin.plusDays(59), null));
+    }
+
+    @Test
+    public void shouldRejectSavingChunkOverlappingItself() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+
+        var first = TestFixtures.subscription(quotation, origin, origin.plusDays(9));
+        var second = TestFixtures.subscription(quotation, origin.plusDays(9), origin.plusDays(19));
+
+        Assertions.assertThrows(RepositoryConstraintViolationException.class, () ->
+                subscriptionRepository.saveAll(List.of(first, second)));
+    }
+
+    @Test
+    public void shouldSaveChunkUpdatingStoredSubscription() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+        var stored = subscriptionRepository.save(TestFixtures.subscription(quotation, origin, origin.plusDays(9)));
+
+        stored.setValidUntil(origin.plusDays(19));
+        var following = TestFixtures.subscription(quotation, origin.plusDays(20), origin.plusDays(29));
+        subscriptionRepository.saveAll(List.of(stored, following));
+
+        Assertions.assertTrue(subscriptionRepository.existsOverlapping(
+                quotation, origin.plusDays(15), origin.plusDays(15), null));
+        Assertions.assertTrue(subscriptionRepository.existsOverlapping(
+                quotation, origin.plusDays(25), origin.plusDays(25), null));
+    }
+
+    @Test
+    public void shouldFindOverlapsWithinChunkAndAgainstStoredSubscriptions() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+        var stored = subscriptionRepository.save(TestFixtures.subscription(quotation, origin, origin.plusDays(9)));
+
+        var againstStored = TestFixtures.subscription(quotation, origin.plusDays(5), origin.plusDays(12));
+        var free = TestFixtures.subscription(quotation, origin.plusDays(20), origin.plusDays(25));
+        var withinChunk = TestFixtures.subscription(quotation, origin.plusDays(25), origin.plusDays(30));
+        var invalid = TestFixtures.subscription(quotation, origin.plusDays(40), origin.plusDays(35));
+
+        var overlaps = subscriptionRepository.findOverlaps(List.of(againstStored, free, withinChunk, invalid));
+
+        Assertions.assertEquals(2, overlaps.size());
+        Assertions.assertTrue(overlaps.stream().anyMatch(o ->
+                o.subscription() == againstStored && o.conflictingSubscription().getId().equals(stored.getId())));
+        Assertions.assertTrue(overlaps.stream().anyMatch(o ->
+                o.subscription() == withinChunk && o.conflictingSubscription() == free));
+    }
+
+    @Test
+    public void shouldFindOverlapsOfChunkAgainstQuotationWithThousandsOfSubscriptions() {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2000, 1, 1);
+        fixtures.storeDailySubscriptions(quotation, origin, LARGE_QUOTATION_SIZE);
+        var end = origin.plusDays(LARGE_QUOTATION_SIZE);
+
+        var chunk = new ArrayList<Subscription>();
+        for (int i = 0; i < 1_000; i++) {
+            var day = end.plusDays(i);
+            chunk.add(TestFixtures.subscription(quotation, day, day));
+        }
+        chunk.add(TestFixtures.subscription(quotation, origin.plusDays(LARGE_QUOTATION_SIZE / 2), end.plusDays(1)));
+
+        var overlaps = subscriptionRepository.findOverlaps(chunk);
+
+        // The last entry covers the second half of the stored subscriptions and the first two days of the chunk.
+        Assertions.assertEquals(LARGE_QUOTATION_SIZE / 2 + 2, overlaps.size());
+    }
+
+    /**
+     * Both writers pass any check made before the other one commits, only the quotation lock keeps them apart.
+     * Runs outside the test transaction so each save commits on its own.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldSaveOnlyOneOfConcurrentOverlappingSubscriptions() throws Exception {
+        var quotation = fixtures.createQuotation();
+        var origin = LocalDate.of(2020, 1, 1);
+        var writers = Executors.newFixedThreadPool(2);
+        try {
+            var start = new CountDownLatch(1);
+            var results = new ArrayList<Future<?>>();
+            for (int i = 0; i < 2; i++) {
+                var subscription = TestFixtures.subscription(quotation, origin.plusDays(i), origin.plusMonths(1));
+                results.add(writers.submit(() -> {
+                    start.await();
+                    return subscriptionRepository.save(subscription);
+                }));
+            }
+            start.countDown();
+
+            var rejected = 0;
+            for (var result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    Assertions.assertInstanceOf(RepositoryConstraintViolationException.class, e.getCause());
+                    rejected++;
+                }
+            }
+            Assertions.assertEquals(1, rejected);
+        } finally {
+            writers.shutdown();
+            fixtures.deleteQuotation(quotation);
+        }
+    }
+}
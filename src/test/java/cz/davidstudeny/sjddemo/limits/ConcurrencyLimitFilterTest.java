@@ -0,0 +1,76 @@
+package cz.davidstudeny.sjddemo.limits;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+
+public class ConcurrencyLimitFilterTest {
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    @Test
+    public void shouldRejectRequestOverLimitWithRetryAfter() throws Exception {
+        var bulkhead = new Bulkhead(new FixedLimit(1), new SimpleMeterRegistry(), "subscriptions", "GET");
+        var filter = new ConcurrencyLimitFilter(
+                Map.of(ConcurrencyLimitFilter.key("subscriptions", "GET"), bulkhead),
+                Duration.ofSeconds(3)
+        );
+        var nestedResponse = new MockHttpServletResponse();
+
+        // The second request arrives while the first one still holds the only permit.
+        filter.doFilter(request("GET", "/subscriptions"), new MockHttpServletResponse(), (req, res) ->
+                filter.doFilter(request("GET", "/subscriptions/1"), nestedResponse, (nestedReq, nestedRes) -> {
+                })
+        );
+
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), nestedResponse.getStatus());
+        Assertions.assertEquals("3", nestedResponse.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void shouldNotLimitUnconfiguredEndpoints() throws Exception {
+        var bulkhead = new Bulkhead(new FixedLimit(1), new SimpleMeterRegistry(), "subscriptions", "GET");
+        var filter = new ConcurrencyLimitFilter(
+                Map.of(ConcurrencyLimitFilter.key("subscriptions", "GET"), bulkhead),
+                Duration.ofSeconds(1)
+        );
+        var nestedResponse = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/subscriptions"), new MockHttpServletResponse(), (req, res) ->
+                filter.doFilter(request("GET", "/quotations"), nestedResponse, (nestedReq, nestedRes) -> {
+                })
+        );
+
+        Assertions.assertEquals(HttpStatus.OK.value(), nestedResponse.getStatus());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/subscriptions;x", "/subscriptions;jsessionid=1/1", "//subscriptions", "/%73ubscriptions"})
+    public void shouldLimitPathVariantsOfLimitedResource(String uri) throws Exception {
+        var bulkhead = new Bulkhead(new FixedLimit(1), new SimpleMeterRegistry(), "subscriptions", "GET");
+        var filter = new ConcurrencyLimitFilter(
+                Map.of(ConcurrencyLimitFilter.key("subscriptions", "GET"), bulkhead),
+                Duration.ofSeconds(1)
+        );
+        var nestedResponse = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/subscriptions"), new MockHttpServletResponse(), (req, res) ->
+                filter.doFilter(request("GET", uri), nestedResponse, (nestedReq, nestedRes) -> {
+                })
+        );
+
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), nestedResponse.getStatus());
+    }
+}
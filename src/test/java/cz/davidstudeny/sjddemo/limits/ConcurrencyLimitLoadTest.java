@@ -0,0 +1,176 @@
+package cz.davidstudeny.sjddemo.limits;
+
+import cz.davidstudeny.sjddemo.IntegrationTest;
+import cz.davidstudeny.sjddemo.TestFixtures;
+import cz.davidstudeny.sjddemo.database.model.Quotation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs isolated since the read flood would otherwise turn away the reads of concurrently running tests.
+ * Excluded from the default build as a load test, run with {@code mvn test -Pbenchmark}.
+ * <p>
+ * Needs at least two processors. The bulkhead bounds how many reads run at once, not their share of the CPU: on
+ * a single processor even one admitted read halves the CPU time of the writer and its garbage collections pause it,
+ * so the write p99 rises several times whatever the limit.
+ */
+@IntegrationTest
+@Isolated
+@Tag("benchmark")
+public class ConcurrencyLimitLoadTest {
+
+    private static final int MIN_PROCESSORS = 2;
+    private static final int READ_THREADS = 16;
+    private static final int WARM_UP_WRITES = 50;
+    private static final int WRITES = 200;
+
+    /**
+     * How many times the baseline write p99 the p99 during the flood may reach.
+     */
+    private static final double P99_TOLERANCE = 3.0;
+
+    /**
+     * Absorbs scheduling jitter when the baseline p99 is only a few milliseconds.
+     */
+    private static final Duration P99_SLACK = Duration.ofMillis(20);
+
+    /**
+     * The pause of a flooding reader after a rejection. Far below the suggested {@code Retry-After} to keep the
+     * pressure up, but enough not to starve the writer of CPU on a small machine, which the bulkhead cannot help.
+     */
+    private static final long REJECTED_READ_PAUSE_MILLIS = 1;
+
+    private static final LocalDate ORIGIN = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    /**
+     * Creates one-day subscriptions one by one from {@code firstDay} on and returns the sorted latencies.
+     */
+    private List<Long> write(Quotation quotation, int firstDay, int count) throws Exception {
+        var latencies = new ArrayList<Long>(count);
+        for (int i = 0; i < count; i++) {
+            var day = ORIGIN.plusDays(firstDay + i);
+            var jsonInput = String.format("""
+                    {
+                        "quotation": "/quotations/%s",
+                        "startDate": "%s",
+                        "validUntil": "%s"
+                    }
+                    """, quotation.getId(), day, day);
+
+            var started = System.nanoTime();
+            var status = mockMvc.perform(MockMvcRequestBuilders.post("/subscriptions").content(jsonInput))
+                    .andReturn().getResponse().getStatus();
+            latencies.add(System.nanoTime() - started);
+
+            Assertions.assertEquals(HttpStatus.CREATED.value(), status);
+        }
+        Collections.sort(latencies);
+        return latencies;
+    }
+
+    private static long p99(List<Long> sortedLatencies) {
+        return sortedLatencies.get(sortedLatencies.size() * 99 / 100);
+    }
+
+    /**
+     * Creates subscriptions one by one, first alone for a baseline and then while the subscription reads are
+     * flooded, and compares the write p99 of both runs. The writes must all succeed, the excess reads must be
+     * turned away instead of queueing.
+     * <p>
+     * The writes commit on their own so they compete for connections like in production, and are removed again
+     * at the end so later tests do not see them.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldKeepWriteLatencyStableDuringReadFlood(TestReporter reporter) throws Exception {
+        Assumptions.assumeTrue(Runtime.getRuntime().availableProcessors() >= MIN_PROCESSORS,
+                "The writer would share the only processor with the admitted reads");
+
+        var quotation = fixtures.createQuotation();
+        try {
+            write(quotation, 0, WARM_UP_WRITES);
+            var baselineP99 = p99(write(quotation, WARM_UP_WRITES, WRITES));
+
+            var flooding = new AtomicBoolean(true);
+            var rejectedReads = new AtomicInteger();
+            var readers = Executors.newFixedThreadPool(READ_THREADS);
+            var readerResults = new ArrayList<Future<?>>(READ_THREADS);
+            for (int i = 0; i < READ_THREADS; i++) {
+                readerResults.add(readers.submit(() -> {
+                    while (flooding.get()) {
+                        var status = mockMvc.perform(MockMvcRequestBuilders.get("/subscriptions"))
+                                .andReturn().getResponse().getStatus();
+                        if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                            rejectedReads.incrementAndGet();
+                            Thread.sleep(REJECTED_READ_PAUSE_MILLIS);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long floodP99;
+            try {
+                floodP99 = p99(write(quotation, WARM_UP_WRITES + WRITES, WRITES));
+            } finally {
+                flooding.set(false);
+                readers.shutdown();
+                Assertions.assertTrue(readers.awaitTermination(30, TimeUnit.SECONDS));
+            }
+            // A reader that failed would have stopped flooding early.
+            for (var readerResult : readerResults) {
+                readerResult.get();
+            }
+
+            var rejectedMetric = meterRegistry.get("concurrency.rejected")
+                    .tags("resource", "subscriptions", "method", "GET")
+                    .counter()
+                    .count();
+
+            reporter.publishEntry("write.p99.baseline.micros", Long.toString(baselineP99 / 1_000));
+            reporter.publishEntry("write.p99.flood.micros", Long.toString(floodP99 / 1_000));
+            reporter.publishEntry("read.rejected", Integer.toString(rejectedReads.get()));
+
+            Assertions.assertTrue(rejectedReads.get() > 0);
+            Assertions.assertTrue(rejectedMetric >= rejectedReads.get());
+            Assertions.assertTrue(
+                    floodP99 <= baselineP99 * P99_TOLERANCE + P99_SLACK.toNanos(),
+                    String.format("The write p99 rose from %d us to %d us during the read flood",
+                            baselineP99 / 1_000, floodP99 / 1_000)
+            );
+        } finally {
+            fixtures.deleteQuotation(quotation);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package cz.davidstudeny.sjddemo.limits;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GradientLimitTest {
+
+    private static final long STEADY_RTT = 1_000_000;
+
+    @Test
+    public void shouldGrowWhileSaturatedAndLatencyIsSteady() {
+        var limit = new GradientLimit(4, 1, 20, 0.2);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(STEADY_RTT, limit.getLimit());
+        }
+
+        Assertions.assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    public void shouldNotGrowWhileIdle() {
+        var limit = new GradientLimit(4, 1, 20, 0.2);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(STEADY_RTT, 1);
+        }
+
+        Assertions.assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void shouldShrinkWhenLatencyRises() {
+        var limit = new GradientLimit(16, 1, 20, 0.2);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(STEADY_RTT, limit.getLimit());
+        }
+        var saturatedLimit = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(STEADY_RTT * 10, limit.getLimit());
+        }
+
+        Assertions.assertTrue(limit.getLimit() < saturatedLimit / 2);
+        Assertions.assertTrue(limit.getLimit() >= 1);
+    }
+
+    @Test
+    public void shouldHoldMinimumWhileLatencyStaysHigh() {
+        var limit = new GradientLimit(8, 1, 8, 0.2);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(STEADY_RTT, limit.getLimit());
+        }
+
+        var reachedMinimumAt = -1;
+        for (int i = 0; i < 1_000; i++) {
+            limit.onSample(STEADY_RTT * 50, limit.getLimit());
+            if (reachedMinimumAt < 0 && limit.getLimit() == 1) {
+                reachedMinimumAt = i;
+            }
+            if (reachedMinimumAt >= 0) {
+                Assertions.assertEquals(1, limit.getLimit(), "The limit left its minimum after sample " + i);
+            }
+        }
+        Assertions.assertTrue(reachedMinimumAt >= 0);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(STEADY_RTT, limit.getLimit());
+        }
+        Assertions.assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    public void shouldGrowDespiteJitter() {
+        var limit = new GradientLimit(4, 1, 20, 0.2);
+
+        for (int i = 0; i < 500; i++) {
+            var jitter = i % 2 == 0 ? 0.8 : 1.3;
+            limit.onSample((long) (STEADY_RTT * jitter), limit.getLimit());
+        }
+
+        Assertions.assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    public void shouldRejectInvalidBounds() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GradientLimit(4, 5, 2, 0.2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GradientLimit(4, 1, 20, 0));
+    }
+}